@@ -0,0 +1,261 @@
+package com.edu;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Replays a keystroke log against an {@link AutocompleteSystem} and reports latency
+ * percentiles together with suggestion quality.
+ *
+ * <p>Each log line is tab-separated: {@code context<TAB>prefix<TAB>chosen}. The context
+ * column may be empty. Lines are streamed, so the log can be larger than memory.</p>
+ *
+ * <p>Usage: {@code ReplayHarness <log> [concurrency] [sync|async] [k] [fuzzy] [warmup]}</p>
+ *
+ * <p>The first {@code warmup} records are replayed but not recorded. In async mode the
+ * suggestion latency includes queueing on the system's single-thread executor.</p>
+ */
+public class ReplayHarness {
+    private static final String USAGE = "Usage: ReplayHarness <log> [concurrency] [sync|async] [k] [fuzzy] [warmup]";
+
+    private final AutocompleteSystem autocomplete;
+    private final int concurrency;
+    private final boolean async;
+    private final int k;
+    private final int warmup;
+
+    private final LatencyHistogram suggestionLatency = new LatencyHistogram();
+    private final LatencyHistogram correctionLatency = new LatencyHistogram();
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong keystrokesSaved = new AtomicLong();
+    private final AtomicLong keystrokesTotal = new AtomicLong();
+    private long malformed;
+
+    public ReplayHarness(AutocompleteSystem autocomplete, int concurrency, boolean async, int k, int warmup) {
+        if (concurrency < 1 || k < 1) {
+            throw new IllegalArgumentException("Concurrency and k must be positive");
+        }
+        if (warmup < 0) {
+            throw new IllegalArgumentException("Warmup must not be negative");
+        }
+        this.autocomplete = autocomplete;
+        this.concurrency = concurrency;
+        this.async = async;
+        this.k = k;
+        this.warmup = warmup;
+    }
+
+    public void replay(String logPath) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        // One permit per in-flight record, so exactly `concurrency` queries run at once
+        Semaphore inFlight = new Semaphore(concurrency);
+        long submitted = 0;
+        long start = System.nanoTime();
+        try (BufferedReader reader = new BufferedReader(new FileReader(logPath))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = line.split("\t", -1);
+                if (fields.length < 3 || fields[1].isEmpty() || fields[2].isEmpty()) {
+                    malformed++;
+                    continue;
+                }
+                if (submitted == warmup && warmup > 0) {
+                    // Drain the warm-up records before timing starts
+                    inFlight.acquire(concurrency);
+                    resetCounters();
+                    inFlight.release(concurrency);
+                    start = System.nanoTime();
+                }
+                String context = fields[0].isEmpty() ? null : fields[0];
+                String prefix = fields[1];
+                String chosen = fields[2];
+                inFlight.acquire();
+                try {
+                    pool.execute(() -> {
+                        try {
+                            replayRecord(context, prefix, chosen);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    inFlight.release();
+                    throw e;
+                }
+                submitted++;
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        if (submitted <= warmup && warmup > 0) {
+            throw new IllegalArgumentException("Log has " + submitted + " records, not more than warmup " + warmup);
+        }
+        printReport(System.nanoTime() - start);
+    }
+
+    private void replayRecord(String context, String prefix, String chosen) {
+        List<String> suggestions;
+        try {
+            long begin = System.nanoTime();
+            if (async) {
+                suggestions = autocomplete.getSuggestionsAsync(prefix, context).get();
+            } else {
+                suggestions = autocomplete.getSuggestions(prefix, context);
+            }
+            suggestionLatency.record(System.nanoTime() - begin);
+            // Mirror the console flow: fall back to corrections when nothing completes the prefix
+            if (suggestions.isEmpty()) {
+                begin = System.nanoTime();
+                suggestions = autocomplete.getCorrections(prefix);
+                correctionLatency.record(System.nanoTime() - begin);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            errors.incrementAndGet();
+            return;
+        } catch (ExecutionException | RuntimeException e) {
+            errors.incrementAndGet();
+            return;
+        }
+
+        queries.incrementAndGet();
+        keystrokesTotal.addAndGet(chosen.length());
+        for (int i = 0; i < k && i < suggestions.size(); i++) {
+            if (suggestions.get(i).equalsIgnoreCase(chosen)) {
+                hits.incrementAndGet();
+                keystrokesSaved.addAndGet(Math.max(0, chosen.length() - prefix.length()));
+                break;
+            }
+        }
+    }
+
+    private void resetCounters() {
+        suggestionLatency.reset();
+        correctionLatency.reset();
+        queries.set(0);
+        hits.set(0);
+        errors.set(0);
+        keystrokesSaved.set(0);
+        keystrokesTotal.set(0);
+    }
+
+    private void printReport(long elapsedNanos) {
+        long total = queries.get();
+        double seconds = elapsedNanos / 1e9;
+        System.out.println("=== Replay Report ===");
+        System.out.printf("Mode: %s, concurrency: %d, fuzzy distance: %d, k: %d, warmup: %d%n",
+                async ? "async" : "sync", concurrency, autocomplete.fuzzyDistance, k, warmup);
+        System.out.printf("Queries: %d (errors: %d, malformed lines: %d)%n", total, errors.get(), malformed);
+        System.out.printf("Elapsed: %.3f s, throughput: %.1f queries/s%n",
+                seconds, seconds > 0 ? total / seconds : 0.0);
+        suggestionLatency.print(async ? "Suggestions (incl. executor queueing)" : "Suggestions");
+        correctionLatency.print("Corrections");
+        System.out.printf("Top-%d hit rate: %.2f%% (%d/%d)%n",
+                k, total > 0 ? 100.0 * hits.get() / total : 0.0, hits.get(), total);
+        long typed = keystrokesTotal.get();
+        System.out.printf("Keystrokes saved: %d of %d (%.2f%%)%n",
+                keystrokesSaved.get(), typed, typed > 0 ? 100.0 * keystrokesSaved.get() / typed : 0.0);
+    }
+
+    /**
+     * Fixed-size latency histogram with one bucket per microsecond; slower calls land in the last bucket.
+     */
+    private static class LatencyHistogram {
+        private static final int MAX_TRACKED_MICROS = 1_000_000;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(MAX_TRACKED_MICROS + 1);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            int micros = (int) Math.min(MAX_TRACKED_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos));
+            buckets.incrementAndGet(micros);
+            count.incrementAndGet();
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        void reset() {
+            for (int i = 0; i <= MAX_TRACKED_MICROS; i++) {
+                buckets.set(i, 0);
+            }
+            count.set(0);
+            maxNanos.set(0);
+        }
+
+        long percentileMicros(double percentile) {
+            long total = count.get();
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i <= MAX_TRACKED_MICROS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return i;
+                }
+            }
+            return MAX_TRACKED_MICROS;
+        }
+
+        void print(String label) {
+            System.out.printf("%s latency (%d calls) p50: %d us, p99: %d us, p999: %d us, max: %d us%n",
+                    label, count.get(), percentileMicros(0.50), percentileMicros(0.99), percentileMicros(0.999),
+                    TimeUnit.NANOSECONDS.toMicros(maxNanos.get()));
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        AutocompleteSystem autocomplete = null;
+        boolean failed = false;
+        try {
+            int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+            String mode = args.length > 2 ? args[2].toLowerCase() : "sync";
+            if (!mode.equals("sync") && !mode.equals("async")) {
+                throw new IllegalArgumentException("Unknown mode: " + args[2] + " (expected sync or async)");
+            }
+            int k = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+            int fuzzy = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+            if (fuzzy < 0) {
+                throw new IllegalArgumentException("Fuzzy distance must not be negative");
+            }
+            int warmup = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+            autocomplete = new AutocompleteSystem(k);
+            autocomplete.fuzzyDistance = fuzzy;
+            new ReplayHarness(autocomplete, concurrency, mode.equals("async"), k, warmup).replay(args[0]);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid number: " + e.getMessage());
+            failed = true;
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            failed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Replay interrupted");
+            failed = true;
+        } finally {
+            if (autocomplete != null) {
+                autocomplete.shutdown();
+            }
+        }
+        if (failed) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+    }
+}